@@ -35,4 +35,10 @@ public class Constants {
     public static final Duration KOLEXCHANGE_UPDATE_DURATION = Duration.ofMinutes(60);
     public static final int KOLEXCHANGE_UPDATE_REQUEST = 1;
 
+    // Data saver policy
+    public static final Duration KOLEXCHANGE_METERED_UPDATE_DURATION = Duration.ofMinutes(120);
+    public static final Duration KOLEXCHANGE_SAVER_UPDATE_DURATION = Duration.ofMinutes(240);
+    public static final long KOLEXCHANGE_GRAPH_BYTES = 40000; // estimate until first download
+    public static final String KOLEXCHANGE_DATA_SAVER_PREFS = "data_saver";
+
 }
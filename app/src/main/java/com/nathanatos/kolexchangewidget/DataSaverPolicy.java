@@ -0,0 +1,81 @@
+/*
+ *******************************************************************************
+ Package:  com.nathanatos.kolexchangewidget
+ Class:    DataSaverPolicy.java
+ Author:   Nathan Cosgray | https://www.nathanatos.com
+ -------------------------------------------------------------------------------
+ Copyright (c) 2013-2025 Nathan Cosgray. All rights reserved.
+ This source code is licensed under the BSD-style license found in LICENSE.txt.
+ *******************************************************************************
+*/
+
+// DataSaverPolicy class
+// - Decide what to fetch based on network and power state
+
+package com.nathanatos.kolexchangewidget;
+
+import androidx.annotation.NonNull;
+
+import java.time.Duration;
+
+public class DataSaverPolicy {
+
+    // What to do with the exchange rate graph
+    public enum GraphMode {
+        FETCH,  // download now
+        DEFER,  // wait for the next unmetered network
+        SKIP    // rate data only
+    }
+
+    private final GraphMode graphMode;
+    private final Duration updateDuration;
+
+    public DataSaverPolicy(GraphMode graphMode, Duration updateDuration) {
+        this.graphMode = graphMode;
+        this.updateDuration = updateDuration;
+    }
+
+    // Build a policy for the given network and power state
+    public static DataSaverPolicy forState(NetworkState state) {
+
+        // Offline: nothing to save, so keep the normal retry schedule
+        if (!state.isConnected()) {
+            return new DataSaverPolicy(GraphMode.FETCH, Constants.KOLEXCHANGE_UPDATE_DURATION);
+        }
+
+        // Roaming, system Data Saver, or battery saver on battery: rate data only
+        if (state.isRoaming() || state.isRestrictBackground()
+                || (state.isBatterySaver() && !state.isCharging())) {
+            return new DataSaverPolicy(GraphMode.SKIP, Constants.KOLEXCHANGE_SAVER_UPDATE_DURATION);
+        }
+
+        // Metered network: hold the graph until an unmetered network is available
+        if (state.isMetered()) {
+            return new DataSaverPolicy(GraphMode.DEFER, Constants.KOLEXCHANGE_METERED_UPDATE_DURATION);
+        }
+
+        return new DataSaverPolicy(GraphMode.FETCH, Constants.KOLEXCHANGE_UPDATE_DURATION);
+    }
+
+    public GraphMode getGraphMode() {
+        return graphMode;
+    }
+
+    public boolean shouldFetchGraph() {
+        return graphMode == GraphMode.FETCH;
+    }
+
+    public Duration getUpdateDuration() {
+        return updateDuration;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "DataSaverPolicy{" +
+                "graphMode=" + graphMode +
+                ", updateDuration=" + updateDuration +
+                '}';
+    }
+
+}
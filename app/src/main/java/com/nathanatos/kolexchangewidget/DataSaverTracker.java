@@ -0,0 +1,122 @@
+/*
+ *******************************************************************************
+ Package:  com.nathanatos.kolexchangewidget
+ Class:    DataSaverTracker.java
+ Author:   Nathan Cosgray | https://www.nathanatos.com
+ -------------------------------------------------------------------------------
+ Copyright (c) 2013-2025 Nathan Cosgray. All rights reserved.
+ This source code is licensed under the BSD-style license found in LICENSE.txt.
+ *******************************************************************************
+*/
+
+// DataSaverTracker class
+// - Track deferred graph downloads
+// - Account for bytes saved by data saver decisions
+// - Persist state in shared preferences so it survives process restarts
+
+package com.nathanatos.kolexchangewidget;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import java.time.Duration;
+
+public class DataSaverTracker {
+
+    private static final String KEY_GRAPH_DEFERRED = "graph_deferred";
+    private static final String KEY_GRAPH_BYTES = "graph_bytes";
+    private static final String KEY_RATE_BYTES = "rate_bytes";
+    private static final String KEY_BYTES_SAVED = "bytes_saved";
+
+    // Guards read-modify-write updates across trackers sharing the same preferences
+    private static final Object lock = new Object();
+
+    private final SharedPreferences prefs;
+
+    public DataSaverTracker(Context context) {
+        this.prefs = context.getApplicationContext()
+                .getSharedPreferences(Constants.KOLEXCHANGE_DATA_SAVER_PREFS, Context.MODE_PRIVATE);
+    }
+
+    // Record a graph download that the policy did not allow, returning total bytes saved
+    public long recordGraphSkipped(DataSaverPolicy.GraphMode graphMode) {
+
+        synchronized (lock) {
+            // Deferred graphs are downloaded later, so only skipped graphs count as saved
+            if (graphMode == DataSaverPolicy.GraphMode.DEFER) {
+                prefs.edit().putBoolean(KEY_GRAPH_DEFERRED, true).apply();
+                return getBytesSaved();
+            }
+            return addBytesSaved(prefs.getLong(KEY_GRAPH_BYTES, Constants.KOLEXCHANGE_GRAPH_BYTES));
+        }
+    }
+
+    // Record a completed graph download
+    public void recordGraphFetched(long bytes) {
+
+        synchronized (lock) {
+            SharedPreferences.Editor editor = prefs.edit().putBoolean(KEY_GRAPH_DEFERRED, false);
+            if (bytes > 0) {
+                editor.putLong(KEY_GRAPH_BYTES, bytes);
+            }
+            editor.apply();
+        }
+    }
+
+    // Record a completed exchange rate download
+    public void recordRateFetched(long bytes) {
+
+        if (bytes > 0) {
+            prefs.edit().putLong(KEY_RATE_BYTES, bytes).apply();
+        }
+    }
+
+    // Record rate downloads avoided by a stretched update interval, returning total bytes saved
+    public long recordStretchedUpdate(Duration updateDuration) {
+
+        synchronized (lock) {
+            long skippedUpdates = updateDuration.toMinutes()
+                    / Constants.KOLEXCHANGE_UPDATE_DURATION.toMinutes() - 1;
+            if (skippedUpdates <= 0) {
+                return getBytesSaved();
+            }
+            return addBytesSaved(skippedUpdates * prefs.getLong(KEY_RATE_BYTES, 0));
+        }
+    }
+
+    // Return true if a graph download is waiting for an unmetered network
+    public boolean isGraphDeferred() {
+        return prefs.getBoolean(KEY_GRAPH_DEFERRED, false);
+    }
+
+    // Take ownership of a deferred graph download; only one caller succeeds
+    public boolean claimDeferredGraph() {
+
+        synchronized (lock) {
+            if (!isGraphDeferred()) {
+                return false;
+            }
+            prefs.edit().putBoolean(KEY_GRAPH_DEFERRED, false).apply();
+            return true;
+        }
+    }
+
+    // Put a claimed graph download back, e.g. after it failed
+    public void restoreDeferredGraph() {
+        prefs.edit().putBoolean(KEY_GRAPH_DEFERRED, true).apply();
+    }
+
+    // Total bytes not downloaded due to data saver decisions
+    public long getBytesSaved() {
+        return prefs.getLong(KEY_BYTES_SAVED, 0);
+    }
+
+    // Add to the bytes saved total; callers hold the lock
+    private long addBytesSaved(long bytes) {
+
+        long total = getBytesSaved() + bytes;
+        prefs.edit().putLong(KEY_BYTES_SAVED, total).apply();
+        return total;
+    }
+
+}
@@ -24,12 +24,13 @@ import android.util.Log;
 
 import java.io.InputStream;
 import java.net.URL;
+import java.net.URLConnection;
 import java.util.concurrent.TimeUnit;
 
 public class KoLExchangeData {
 
     // Load exchange rate from web service, with retries
-    public static RateData getExchangeRate() {
+    public static RateData getExchangeRate(Context context) {
 
         final String logTag = "getExchangeRate";
         RateData rateData = null;
@@ -44,6 +45,7 @@ public class KoLExchangeData {
                 String json = parser.getApiData(Constants.KOLEXCHANGE_WS_URL, Constants.KOLEXCHANGE_TIMEOUT);
                 if (json != null) {
                     rateData = JsonParser.parseApiData(json);
+                    new DataSaverTracker(context).recordRateFetched(json.length());
                 }
                 if (rateData == null) {
                     // Pause before retrying
@@ -62,7 +64,7 @@ public class KoLExchangeData {
     }
 
     // Download the exchange rate graph image, with retries
-    public static Bitmap getExchangeGraph() {
+    public static Bitmap getExchangeGraph(Context context) {
 
         final String logTag = "getExchangeGraph";
         Bitmap graphImage = null;
@@ -71,13 +73,30 @@ public class KoLExchangeData {
         int retries = Constants.KOLEXCHANGE_RETRIES;
         while (graphImage == null && retries > 0) {
             try {
-                InputStream in = new URL(Constants.KOLEXCHANGE_GRAPH_URL).openStream();
-                graphImage = BitmapFactory.decodeStream(in);
+                URLConnection conn = new URL(Constants.KOLEXCHANGE_GRAPH_URL).openConnection();
+                conn.setConnectTimeout(Constants.KOLEXCHANGE_TIMEOUT);
+                conn.setReadTimeout(Constants.KOLEXCHANGE_TIMEOUT);
+                try (InputStream in = conn.getInputStream()) {
+                    graphImage = BitmapFactory.decodeStream(in);
+                }
+                if (graphImage != null) {
+                    new DataSaverTracker(context).recordGraphFetched(conn.getContentLengthLong());
+                }
             } catch (Exception e) {
                 Log.e(logTag, e.getMessage());
             }
 
             retries--;
+
+            // Pause before retrying
+            if (graphImage == null && retries > 0) {
+                try {
+                    TimeUnit.MILLISECONDS.sleep(Constants.KOLEXCHANGE_TIMEOUT);
+                } catch (InterruptedException e) {
+                    Log.e(logTag, e.getMessage());
+                    break;
+                }
+            }
         }
 
         return graphImage;
@@ -12,6 +12,7 @@
 // KoLExchangeWidget class
 // - Widget configuration
 // - Handle widget clicks
+// - Render shared rate snapshots
 
 package com.nathanatos.kolexchangewidget;
 
@@ -28,13 +29,21 @@ import android.os.Looper;
 import android.util.Log;
 import android.widget.RemoteViews;
 
+import java.time.Duration;
 import java.time.ZonedDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class KoLExchangeWidget extends AppWidgetProvider {
 
+    // Snapshot version last rendered on each widget in this process
+    private static final Map<Integer, Long> renderedVersions = new ConcurrentHashMap<>();
+    private static final AtomicBoolean followingSnapshots = new AtomicBoolean(false);
+
     // Update widget data
     @Override
     public void onUpdate(Context context, AppWidgetManager appWidgetManager, int[] appWidgetIds) {
@@ -55,14 +64,17 @@ public class KoLExchangeWidget extends AppWidgetProvider {
             Log.e(logTag, e.getMessage());
         }
 
-        // Update all widgets
+        // Check what the current network allows
+        NetworkState networkState = NetworkState.fromContext(context);
+        DataSaverPolicy policy = DataSaverPolicy.forState(networkState);
+        Log.i(logTag, "Using " + policy + " for " + networkState);
+
+        // Update all widgets from a single fetch
         Log.i(logTag, "Starting all widgets update");
-        for (int appWidgetId : appWidgetIds) {
-            doWidgetUpdate(context, appWidgetManager, appWidgetId);
-        }
+        doWidgetsUpdate(context, policy.getUpdateDuration());
 
-        // Schedule the next update
-        scheduleUpdate(context);
+        // Schedule the next update, stretched on metered or power-saving devices
+        scheduleUpdate(context, policy.getUpdateDuration());
 
     }
 
@@ -70,6 +82,7 @@ public class KoLExchangeWidget extends AppWidgetProvider {
     @Override
     public void onReceive(Context context, Intent intent) {
 
+        followSnapshots(context);
         super.onReceive(context, intent);
 
         final String logTag = "onReceive";
@@ -85,10 +98,18 @@ public class KoLExchangeWidget extends AppWidgetProvider {
                         AppWidgetManager.INVALID_APPWIDGET_ID);
             }
 
-            // Update this widget
+            // Show the latest snapshot on this widget without a network call; the main
+            // activity refreshes the rate. Snapshots are process-local, so a cold process
+            // has none and falls back to fetching for the widgets.
             if (appWidgetId != AppWidgetManager.INVALID_APPWIDGET_ID) {
-                Log.i(logTag, "Starting single widget update");
-                doWidgetUpdate(context, AppWidgetManager.getInstance(context), appWidgetId);
+                RateSnapshot snapshot = RateSnapshotBus.getSnapshot();
+                if (snapshot != null) {
+                    Log.i(logTag, "Rendering latest snapshot on widget");
+                    renderWidget(context, AppWidgetManager.getInstance(context), appWidgetId, snapshot);
+                } else {
+                    Log.i(logTag, "Starting all widgets update");
+                    doWidgetsUpdate(context, Constants.KOLEXCHANGE_UPDATE_DURATION);
+                }
             }
 
             // Open the main activity
@@ -111,8 +132,56 @@ public class KoLExchangeWidget extends AppWidgetProvider {
 
     }
 
+    // Render new snapshots on all widgets for as long as the process lives
+    public static void followSnapshots(Context context) {
+
+        if (followingSnapshots.compareAndSet(false, true)) {
+            Context appContext = context.getApplicationContext();
+            Handler handler = new Handler(Looper.getMainLooper());
+
+            // Notifications can arrive out of order, so always render the current snapshot
+            RateSnapshotBus.subscribe(snapshot -> handler.post(() ->
+                    renderWidgets(appContext, RateSnapshotBus.getSnapshot())));
+        }
+
+    }
+
+    // Render a snapshot on any active widget that has not shown it yet
+    private static void renderWidgets(Context context, RateSnapshot snapshot) {
+
+        long version = snapshot == null ? 0 : snapshot.getVersion();
+        AppWidgetManager appWidgetManager = AppWidgetManager.getInstance(context);
+        for (int appWidgetId : getActiveWidgetIds(context)) {
+            Long renderedVersion = renderedVersions.get(appWidgetId);
+            if (renderedVersion == null || version > renderedVersion) {
+                renderWidget(context, appWidgetManager, appWidgetId, snapshot);
+            }
+        }
+
+    }
+
+    // Render a snapshot on a widget and set click intent
+    private static void renderWidget(Context context, AppWidgetManager appWidgetManager,
+                                     int appWidgetId, RateSnapshot snapshot) {
+
+        // Update the widget text only if a value is available
+        RemoteViews views = new RemoteViews(context.getPackageName(), R.layout.widget_main);
+        if (snapshot != null) {
+            views.setTextViewText(R.id.widget_textview, snapshot.getRateData().getFormattedRate());
+        }
+
+        // Set up the click intent
+        views.setOnClickPendingIntent(R.id.widget_rootview,
+                getClickPendingIntent(context, appWidgetId));
+
+        // Apply updates
+        appWidgetManager.updateAppWidget(appWidgetId, views);
+        renderedVersions.put(appWidgetId, snapshot == null ? 0 : snapshot.getVersion());
+
+    }
+
     // Fetch active widget IDs
-    private int[] getActiveWidgetIds(Context context) {
+    private static int[] getActiveWidgetIds(Context context) {
 
         AppWidgetManager appWidgetManager = AppWidgetManager.getInstance(context);
         ComponentName componentName = new ComponentName(context, KoLExchangeWidget.class);
@@ -122,7 +191,7 @@ public class KoLExchangeWidget extends AppWidgetProvider {
     }
 
     // Generate a click intent for a widget
-    private PendingIntent getClickPendingIntent(Context context, int appWidgetId) {
+    private static PendingIntent getClickPendingIntent(Context context, int appWidgetId) {
 
         // Set up the click intent
         Intent intent = new Intent(context, KoLExchangeWidget.class);
@@ -152,12 +221,12 @@ public class KoLExchangeWidget extends AppWidgetProvider {
     }
 
     // Use alarm manager to schedule widget update
-    private void scheduleUpdate(Context context) {
+    private void scheduleUpdate(Context context, Duration updateDuration) {
 
         if (getActiveWidgetIds(context).length > 0) {
 
             // Set inexact alarm for next update
-            ZonedDateTime nextUpdate = ZonedDateTime.now().plus(Constants.KOLEXCHANGE_UPDATE_DURATION);
+            ZonedDateTime nextUpdate = ZonedDateTime.now().plus(updateDuration);
             AlarmManager alarmManager = (AlarmManager) context.getSystemService(Context.ALARM_SERVICE);
             if (alarmManager != null) {
                 alarmManager.set(AlarmManager.RTC_WAKEUP,
@@ -178,42 +247,28 @@ public class KoLExchangeWidget extends AppWidgetProvider {
 
     }
 
-    // Asynchronously update the widget data and set click intent
-    private void doWidgetUpdate(Context context, AppWidgetManager appWidgetManager, int appWidgetId) {
+    // Asynchronously update the widget data and set click intents
+    private void doWidgetsUpdate(Context context, Duration updateDuration) {
+
+        final String logTag = "doWidgetsUpdate";
 
         ExecutorService executor = Executors.newSingleThreadExecutor();
         Handler handler = new Handler(Looper.getMainLooper());
 
-        executor.execute(new Runnable() {
-
-            RateData rateData = null;
-
-            // Load data from web service
-            @Override
-            public void run() {
+        executor.execute(() -> {
 
-                // Load exchange rate
-                rateData = KoLExchangeData.getExchangeRate();
+            // Load exchange rate and share it; a new version renders via followSnapshots
+            RateSnapshotBus.publish(KoLExchangeData.getExchangeRate(context));
 
-                // After loading data, apply updates to the widget
-                handler.post(() -> {
+            // Credit fetches avoided by the update interval, now that the rate size is known
+            long bytesSaved = new DataSaverTracker(context).recordStretchedUpdate(updateDuration);
+            Log.i(logTag, "Data saver total: " + bytesSaved + " bytes saved");
 
-                    // Update the widget text only if a value was received
-                    RemoteViews views = new RemoteViews(context.getPackageName(), R.layout.widget_main);
-                    if (rateData != null) {
-                        views.setTextViewText(R.id.widget_textview, rateData.getFormattedRate());
-                    }
+            // Widgets not yet rendered in this process still need a click intent
+            handler.post(() -> renderWidgets(context, RateSnapshotBus.getSnapshot()));
 
-                    // Set up the click intent
-                    views.setOnClickPendingIntent(R.id.widget_rootview,
-                            getClickPendingIntent(context, appWidgetId));
-
-                    // Apply updates
-                    appWidgetManager.updateAppWidget(appWidgetId, views);
-
-                });
-            }
         });
+        executor.shutdown();
 
     }
 
@@ -11,6 +11,8 @@
 
 // MainActivity class
 // - Get current exchange rate and graph
+// - Show and share the latest rate snapshot
+// - Defer graph download until an unmetered network is available
 // - Link to website
 // - Widget pinning action
 
@@ -20,6 +22,9 @@ import android.appwidget.AppWidgetManager;
 import android.content.ComponentName;
 import android.content.Intent;
 import android.graphics.Bitmap;
+import android.net.ConnectivityManager;
+import android.net.Network;
+import android.net.NetworkCapabilities;
 import android.net.Uri;
 import android.os.Bundle;
 
@@ -27,17 +32,26 @@ import androidx.appcompat.app.AppCompatActivity;
 
 import android.os.Handler;
 import android.os.Looper;
+import android.text.format.Formatter;
 import android.util.Log;
 import android.view.View;
 
+import androidx.annotation.NonNull;
+
 import com.nathanatos.kolexchangewidget.databinding.ActivityMainBinding;
 
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 
 public class MainActivity extends AppCompatActivity {
 
     private ActivityMainBinding binding;
+    private DataSaverTracker dataSaverTracker;
+    private ConnectivityManager.NetworkCallback deferredGraphCallback;
+    private ExecutorService deferredGraphExecutor;
+    private RateSnapshotBus.Listener snapshotListener;
+    private long renderedVersion = 0;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -53,39 +67,79 @@ public class MainActivity extends AppCompatActivity {
         binding.contentActivityButtonLink.setOnClickListener(getWebClickListener());
         binding.fabActivityAction.setOnClickListener(getPinClickListener());
 
+        // Show data saver totals
+        dataSaverTracker = new DataSaverTracker(this);
+        showBytesSaved();
+
+        // Show the latest snapshot immediately and follow future changes;
+        // notifications can arrive out of order, so always render the current snapshot
+        Handler handler = new Handler(Looper.getMainLooper());
+        snapshotListener = snapshot -> handler.post(() -> applySnapshot(RateSnapshotBus.getSnapshot()));
+        RateSnapshotBus.subscribe(snapshotListener);
+        KoLExchangeWidget.followSnapshots(this);
+        applySnapshot(RateSnapshotBus.getSnapshot());
+
         doRefresh();
 
     }
 
+    @Override
+    protected void onDestroy() {
+
+        RateSnapshotBus.unsubscribe(snapshotListener);
+        cancelDeferredGraph();
+        super.onDestroy();
+
+    }
+
     // Refresh data
     private void doRefresh() {
 
         final String logTag = "doRefresh";
 
-        // Clear rate while refreshing
-        binding.contentActivityTextviewRate.setText(getString(R.string.loading_text));
+        // Keep showing the latest snapshot while refreshing, if there is one
+        if (RateSnapshotBus.getSnapshot() == null) {
+            binding.contentActivityTextviewRate.setText(getString(R.string.loading_text));
+        }
         binding.contentActivityTextviewRate.setCompoundDrawablesRelativeWithIntrinsicBounds(0, 0, 0, 0);
 
+        // Check what the current network allows
+        NetworkState networkState = NetworkState.fromContext(this);
+        DataSaverPolicy policy = DataSaverPolicy.forState(networkState);
+        Log.i(logTag, "Using " + policy + " for " + networkState);
+
         // Download the exchange rate data
         ExecutorService executor = Executors.newSingleThreadExecutor();
         Handler handler = new Handler(Looper.getMainLooper());
 
         executor.execute(() -> {
             try {
-                // Load exchange rate and graph image and apply to layout
-                RateData rateData = KoLExchangeData.getExchangeRate();
-                Bitmap graphImage = KoLExchangeData.getExchangeGraph();
+                // Load exchange rate and graph image; subscribers apply any new rate
+                RateSnapshot snapshot = RateSnapshotBus.publish(KoLExchangeData.getExchangeRate(this));
+                Bitmap graphImage = policy.shouldFetchGraph() ?
+                        KoLExchangeData.getExchangeGraph(this) : null;
+                if (!policy.shouldFetchGraph()) {
+                    long bytesSaved = dataSaverTracker.recordGraphSkipped(policy.getGraphMode());
+                    Log.i(logTag, "Graph " + policy.getGraphMode() + ", " + bytesSaved + " bytes saved");
+                }
 
                 handler.post(() -> {
-                    if (rateData != null) {
-                        binding.contentActivityTextviewRate.setText(rateData.getFormattedRate());
-                        binding.contentActivityTextviewIotm.setText(rateData.getIotm());
-                        binding.contentActivityTextviewNow.setText(rateData.getNow());
+                    if (snapshot != null) {
                         binding.contentActivityTextviewRate.setCompoundDrawablesRelativeWithIntrinsicBounds(0, 0, R.drawable.ic_refresh, 0);
+                    } else {
+                        // Fetch failed: leave the loading state rather than show stale data
+                        binding.contentActivityTextviewRate.setText(getString(R.string.loading_text));
+                        binding.contentActivityTextviewIotm.setText("");
+                        binding.contentActivityTextviewNow.setText("");
+                        renderedVersion = 0;
                     }
                     if (graphImage != null) {
                         binding.contentActivityImageviewGraph.setImageBitmap(graphImage);
                     }
+                    if (dataSaverTracker.isGraphDeferred()) {
+                        scheduleDeferredGraph();
+                    }
+                    showBytesSaved();
                 });
             } catch (Exception e) {
                 Log.e(logTag, e.getMessage());
@@ -94,6 +148,104 @@ public class MainActivity extends AppCompatActivity {
 
     }
 
+    // Apply a rate snapshot to the layout if it is newer than the one shown
+    private void applySnapshot(RateSnapshot snapshot) {
+
+        if (snapshot == null || snapshot.getVersion() <= renderedVersion) {
+            return;
+        }
+
+        RateData rateData = snapshot.getRateData();
+        binding.contentActivityTextviewRate.setText(rateData.getFormattedRate());
+        binding.contentActivityTextviewIotm.setText(rateData.getIotm());
+        binding.contentActivityTextviewNow.setText(rateData.getNow());
+        binding.contentActivityTextviewRate.setCompoundDrawablesRelativeWithIntrinsicBounds(0, 0, R.drawable.ic_refresh, 0);
+        renderedVersion = snapshot.getVersion();
+
+    }
+
+    // Show the data saver total, if anything has been saved
+    private void showBytesSaved() {
+
+        long bytesSaved = dataSaverTracker.getBytesSaved();
+        binding.contentActivityTextviewSaved.setText(bytesSaved > 0 ?
+                getString(R.string.data_saver_text, Formatter.formatShortFileSize(this, bytesSaved)) : "");
+
+    }
+
+    // Wait for an unmetered network, then download the deferred graph. The graph is only
+    // shown here, so waiting is limited to the activity's lifetime; once it is closed, the
+    // next refresh on an unmetered network downloads the graph as usual.
+    private void scheduleDeferredGraph() {
+
+        final String logTag = "scheduleDeferredGraph";
+
+        ConnectivityManager connectivityManager =
+                (ConnectivityManager) getSystemService(CONNECTIVITY_SERVICE);
+        if (connectivityManager == null || deferredGraphCallback != null) {
+            return;
+        }
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Handler handler = new Handler(Looper.getMainLooper());
+        deferredGraphExecutor = executor;
+        deferredGraphCallback = new ConnectivityManager.NetworkCallback() {
+            @Override
+            public void onCapabilitiesChanged(@NonNull Network network,
+                                              @NonNull NetworkCapabilities capabilities) {
+
+                // Only decide here; callbacks share a thread, so download elsewhere
+                if (capabilities.hasCapability(NetworkCapabilities.NET_CAPABILITY_NOT_METERED)
+                        && capabilities.hasCapability(NetworkCapabilities.NET_CAPABILITY_VALIDATED)
+                        && dataSaverTracker.claimDeferredGraph()) {
+
+                    // Download the graph, with retries, and apply to layout
+                    Log.i(logTag, "Unmetered network available, loading deferred graph");
+                    try {
+                        executor.execute(() -> {
+                            Bitmap graphImage = KoLExchangeData.getExchangeGraph(MainActivity.this);
+                            if (graphImage == null) {
+                                // Still failing; wait for the next network change or refresh
+                                dataSaverTracker.restoreDeferredGraph();
+                            }
+                            handler.post(() -> {
+                                if (graphImage != null) {
+                                    binding.contentActivityImageviewGraph.setImageBitmap(graphImage);
+                                }
+                                if (!dataSaverTracker.isGraphDeferred()) {
+                                    cancelDeferredGraph();
+                                }
+                            });
+                        });
+                    } catch (RejectedExecutionException e) {
+                        // Activity already stopped waiting
+                        dataSaverTracker.restoreDeferredGraph();
+                    }
+                }
+            }
+        };
+
+        Log.i(logTag, "Waiting for unmetered network");
+        connectivityManager.registerDefaultNetworkCallback(deferredGraphCallback);
+
+    }
+
+    // Stop waiting for an unmetered network
+    private void cancelDeferredGraph() {
+
+        ConnectivityManager connectivityManager =
+                (ConnectivityManager) getSystemService(CONNECTIVITY_SERVICE);
+        if (connectivityManager != null && deferredGraphCallback != null) {
+            connectivityManager.unregisterNetworkCallback(deferredGraphCallback);
+        }
+        if (deferredGraphExecutor != null) {
+            deferredGraphExecutor.shutdown();
+        }
+        deferredGraphCallback = null;
+        deferredGraphExecutor = null;
+
+    }
+
     // Create a listener for refreshing data
     private View.OnClickListener getRefreshListener() {
 
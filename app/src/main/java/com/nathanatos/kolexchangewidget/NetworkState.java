@@ -0,0 +1,125 @@
+/*
+ *******************************************************************************
+ Package:  com.nathanatos.kolexchangewidget
+ Class:    NetworkState.java
+ Author:   Nathan Cosgray | https://www.nathanatos.com
+ -------------------------------------------------------------------------------
+ Copyright (c) 2013-2025 Nathan Cosgray. All rights reserved.
+ This source code is licensed under the BSD-style license found in LICENSE.txt.
+ *******************************************************************************
+*/
+
+// Network and power state object
+// - Snapshot of the conditions that drive the data saver policy
+
+package com.nathanatos.kolexchangewidget;
+
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.Network;
+import android.net.NetworkCapabilities;
+import android.os.BatteryManager;
+import android.os.Build;
+import android.os.PowerManager;
+
+import androidx.annotation.NonNull;
+
+public class NetworkState {
+
+    private final boolean connected;
+    private final boolean metered;
+    private final boolean roaming;
+    private final boolean restrictBackground;
+    private final boolean batterySaver;
+    private final boolean charging;
+
+    public NetworkState(boolean connected, boolean metered, boolean roaming,
+                        boolean restrictBackground, boolean batterySaver, boolean charging) {
+        this.connected = connected;
+        this.metered = metered;
+        this.roaming = roaming;
+        this.restrictBackground = restrictBackground;
+        this.batterySaver = batterySaver;
+        this.charging = charging;
+    }
+
+    // Read the current network and power state from the device
+    public static NetworkState fromContext(Context context) {
+
+        boolean connected = KoLExchangeData.isNetworkConnected(context);
+        boolean metered = true;
+        boolean roaming = false;
+        boolean restrictBackground = false;
+        boolean batterySaver = false;
+        boolean charging = false;
+
+        // Get network details
+        ConnectivityManager connectivityManager =
+                (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+        if (connectivityManager != null) {
+            Network network = connectivityManager.getActiveNetwork();
+            NetworkCapabilities capabilities = network == null ? null :
+                    connectivityManager.getNetworkCapabilities(network);
+            if (capabilities != null) {
+                metered = !capabilities.hasCapability(NetworkCapabilities.NET_CAPABILITY_NOT_METERED);
+                if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.P) {
+                    roaming = !capabilities.hasCapability(NetworkCapabilities.NET_CAPABILITY_NOT_ROAMING);
+                }
+            }
+
+            // System Data Saver only restricts metered networks
+            restrictBackground = metered && connectivityManager.getRestrictBackgroundStatus() ==
+                    ConnectivityManager.RESTRICT_BACKGROUND_STATUS_ENABLED;
+        }
+
+        // Get power details
+        PowerManager powerManager = (PowerManager) context.getSystemService(Context.POWER_SERVICE);
+        if (powerManager != null) {
+            batterySaver = powerManager.isPowerSaveMode();
+        }
+        BatteryManager batteryManager = (BatteryManager) context.getSystemService(Context.BATTERY_SERVICE);
+        if (batteryManager != null) {
+            charging = batteryManager.isCharging();
+        }
+
+        return new NetworkState(connected, metered, roaming, restrictBackground, batterySaver, charging);
+    }
+
+    public boolean isConnected() {
+        return connected;
+    }
+
+    public boolean isMetered() {
+        return metered;
+    }
+
+    public boolean isRoaming() {
+        return roaming;
+    }
+
+    public boolean isRestrictBackground() {
+        return restrictBackground;
+    }
+
+    public boolean isBatterySaver() {
+        return batterySaver;
+    }
+
+    public boolean isCharging() {
+        return charging;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "NetworkState{" +
+                "connected=" + connected +
+                ", metered=" + metered +
+                ", roaming=" + roaming +
+                ", restrictBackground=" + restrictBackground +
+                ", batterySaver=" + batterySaver +
+                ", charging=" + charging +
+                '}';
+    }
+
+}
@@ -18,6 +18,7 @@ import android.util.Log;
 import androidx.annotation.NonNull;
 
 import java.text.NumberFormat;
+import java.util.Objects;
 
 public class RateData {
 
@@ -88,6 +89,29 @@ public class RateData {
         return now + Constants.KOLEXCHANGE_TIMEZONE;
     }
 
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        RateData rateData = (RateData) o;
+        return mallPrice == rateData.mallPrice &&
+                rate == rateData.rate &&
+                iotmId == rateData.iotmId &&
+                iotmIsFamiliar == rateData.iotmIsFamiliar &&
+                Objects.equals(iotmName, rateData.iotmName) &&
+                Objects.equals(gameDate, rateData.gameDate) &&
+                Objects.equals(now, rateData.now);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(mallPrice, rate, iotmId, iotmName, iotmIsFamiliar, gameDate, now);
+    }
+
     @NonNull
     @Override
     public String toString() {
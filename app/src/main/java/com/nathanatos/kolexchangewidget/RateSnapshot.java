@@ -0,0 +1,57 @@
+/*
+ *******************************************************************************
+ Package:  com.nathanatos.kolexchangewidget
+ Class:    RateSnapshot.java
+ Author:   Nathan Cosgray | https://www.nathanatos.com
+ -------------------------------------------------------------------------------
+ Copyright (c) 2013-2025 Nathan Cosgray. All rights reserved.
+ This source code is licensed under the BSD-style license found in LICENSE.txt.
+ *******************************************************************************
+*/
+
+// Versioned exchange rate snapshot object
+
+package com.nathanatos.kolexchangewidget;
+
+import androidx.annotation.NonNull;
+
+public class RateSnapshot {
+
+    private final RateData rateData;
+    private final long version;
+    private final int contentHash;
+
+    public RateSnapshot(RateData rateData, long version) {
+        this.rateData = rateData;
+        this.version = version;
+        this.contentHash = rateData.hashCode();
+    }
+
+    public RateData getRateData() {
+        return rateData;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public int getContentHash() {
+        return contentHash;
+    }
+
+    // Return true if this snapshot holds the same content as the given rate data
+    public boolean hasContent(RateData other) {
+        return other != null && contentHash == other.hashCode() && rateData.equals(other);
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "RateSnapshot{" +
+                "version=" + version +
+                ", contentHash=" + contentHash +
+                ", rateData=" + rateData +
+                '}';
+    }
+
+}
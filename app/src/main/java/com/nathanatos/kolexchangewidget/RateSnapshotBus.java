@@ -0,0 +1,76 @@
+/*
+ *******************************************************************************
+ Package:  com.nathanatos.kolexchangewidget
+ Class:    RateSnapshotBus.java
+ Author:   Nathan Cosgray | https://www.nathanatos.com
+ -------------------------------------------------------------------------------
+ Copyright (c) 2013-2025 Nathan Cosgray. All rights reserved.
+ This source code is licensed under the BSD-style license found in LICENSE.txt.
+ *******************************************************************************
+*/
+
+// RateSnapshotBus class
+// - Share the latest exchange rate between the widgets and main activity
+// - Notify subscribers when the rate content changes
+
+package com.nathanatos.kolexchangewidget;
+
+import android.util.Log;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class RateSnapshotBus {
+
+    // Receive new snapshots, called on the publishing thread
+    public interface Listener {
+        void onSnapshotChanged(RateSnapshot snapshot);
+    }
+
+    private static final AtomicReference<RateSnapshot> current = new AtomicReference<>(null);
+    private static final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    // Return the latest snapshot, or null if no rate has been fetched yet
+    public static RateSnapshot getSnapshot() {
+        return current.get();
+    }
+
+    // Publish fetched rate data, returning the latest snapshot, or null if the fetch failed
+    public static RateSnapshot publish(RateData rateData) {
+
+        final String logTag = "publish";
+
+        if (rateData == null) {
+            return null;
+        }
+
+        // Swap in a new version only if the content changed
+        RateSnapshot previous;
+        RateSnapshot next;
+        do {
+            previous = current.get();
+            if (previous != null && previous.hasContent(rateData)) {
+                return previous;
+            }
+            next = new RateSnapshot(rateData, previous == null ? 1 : previous.getVersion() + 1);
+        } while (!current.compareAndSet(previous, next));
+        Log.i(logTag, "Published " + next);
+
+        // Notify subscribers
+        for (Listener listener : listeners) {
+            listener.onSnapshotChanged(next);
+        }
+
+        return next;
+    }
+
+    public static void subscribe(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public static void unsubscribe(Listener listener) {
+        listeners.remove(listener);
+    }
+
+}